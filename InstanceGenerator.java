@@ -0,0 +1,194 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Generates synthetic MAXSAT problems and writes them as CNF files that can be
+ * passed to Main or Swarm. Two kinds of problems are supported: uniform random
+ * k-SAT, where every clause picks k distinct variables and random signs, and
+ * planted k-SAT, where a hidden assignment is chosen first and only clauses it
+ * satisfies are kept, so the problem is known to be fully satisfiable. The same
+ * seed always produces the same problem.
+ *
+ * @authors Souleman Toure, Diyaa Yaqub, and Jigyasa Subedi
+ */
+public class InstanceGenerator {
+
+	// number of boolean variables in the generated problem
+	private int variables;
+
+	// number of literals in each clause
+	private int k;
+
+	private Random rand;
+
+
+	/**
+	 * Constructor for a generator.
+	 *
+	 * @param variables is the number of boolean variables in the problem.
+	 * @param k         is the number of literals in each clause.
+	 * @param seed      is the seed for the random number generator.
+	 */
+	public InstanceGenerator(int variables, int k, long seed) {
+		if (k < 1 || variables < k) {
+			throw new IllegalArgumentException("need at least k = " + k + " variables, got " + variables);
+		}
+		this.variables = variables;
+		this.k = k;
+		this.rand = new Random(seed);
+	}
+
+
+	/**
+	 * Generates a uniform random k-SAT problem.
+	 *
+	 * @param clauses is the number of clauses to generate.
+	 * @return the clauses, each an array of k non-zero literals.
+	 */
+	public List<int[]> randomKSat(int clauses) {
+		List<int[]> problem = new ArrayList<int[]>();
+		for (int i = 0; i < clauses; i++) {
+			problem.add(randomClause());
+		}
+		return problem;
+	}
+
+
+	/**
+	 * Generates a planted k-SAT problem. A random assignment is drawn first and
+	 * random clauses that it does not satisfy are thrown away and redrawn, so the
+	 * planted assignment satisfies every clause.
+	 *
+	 * @param clauses is the number of clauses to generate.
+	 * @return the clauses, each an array of k non-zero literals.
+	 */
+	public List<int[]> plantedKSat(int clauses) {
+		boolean[] planted = new boolean[variables];
+		for (int i = 0; i < variables; i++) {
+			planted[i] = rand.nextBoolean();
+		}
+
+		List<int[]> problem = new ArrayList<int[]>();
+		while (problem.size() < clauses) {
+			int[] clause = randomClause();
+			if (satisfies(planted, clause)) {
+				problem.add(clause);
+			}
+		}
+		return problem;
+	}
+
+
+	/**
+	 * Helper method that draws k distinct variables and gives each a random sign.
+	 *
+	 * @return a clause of k literals.
+	 */
+	private int[] randomClause() {
+		int[] clause = new int[k];
+		for (int i = 0; i < k; i++) {
+			int variable;
+			boolean repeated;
+			do {
+				variable = rand.nextInt(variables) + 1;
+				repeated = false;
+				for (int j = 0; j < i; j++) {
+					if (Math.abs(clause[j]) == variable) {
+						repeated = true;
+					}
+				}
+			} while (repeated);
+			clause[i] = rand.nextBoolean() ? variable : -variable;
+		}
+		return clause;
+	}
+
+
+	/**
+	 * Checks whether an assignment satisfies a clause.
+	 *
+	 * @param assignment is the value of each variable, indexed from 0.
+	 * @param clause     is the clause being checked.
+	 * @return whether at least one literal in the clause is true.
+	 */
+	private static boolean satisfies(boolean[] assignment, int[] clause) {
+		for (int i = 0; i < clause.length; i++) {
+			int literal = clause[i];
+			if (literal > 0 && assignment[literal - 1]) {
+				return true;
+			} else if (literal < 0 && !assignment[-literal - 1]) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+
+	/**
+	 * Writes a problem to a file in CNF format.
+	 *
+	 * @param file    is the file to write to.
+	 * @param problem is the list of clauses.
+	 * @throws IOException if the file cannot be written.
+	 */
+	public void write(File file, List<int[]> problem) throws IOException {
+		PrintWriter writer = new PrintWriter(new FileWriter(file));
+		try {
+			writer.println("p cnf " + variables + " " + problem.size());
+			for (int i = 0; i < problem.size(); i++) {
+				int[] clause = problem.get(i);
+				StringBuilder line = new StringBuilder();
+				for (int j = 0; j < clause.length; j++) {
+					line.append(clause[j]).append(' ');
+				}
+				line.append('0');
+				writer.println(line);
+			}
+		} finally {
+			writer.close();
+		}
+	}
+
+
+	/**
+	 * Returns the file name Main expects for a CNF problem of this size, so that
+	 * Main can read the number of variables and clauses from it.
+	 *
+	 * @param variables is the number of boolean variables.
+	 * @param clauses   is the number of clauses.
+	 * @return the file name, in the form v{variables}-c{clauses}.cnf.
+	 */
+	public static String fileName(int variables, int clauses) {
+		return "v" + variables + "-c" + clauses + ".cnf";
+	}
+
+
+	/**
+	 * Generates a problem from the command line and writes it to the current
+	 * directory. Usage: java InstanceGenerator {variables} {clauses} {k} {seed}
+	 * [planted]
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 4) {
+			System.out.println("Usage: java InstanceGenerator {variables} {clauses} {k} {seed} [planted]");
+			return;
+		}
+
+		int variables = Integer.parseInt(args[0]);
+		int clauses = Integer.parseInt(args[1]);
+		int k = Integer.parseInt(args[2]);
+		long seed = Long.parseLong(args[3]);
+		boolean planted = args.length > 4 && args[4].equals("planted");
+
+		InstanceGenerator generator = new InstanceGenerator(variables, k, seed);
+		List<int[]> problem = planted ? generator.plantedKSat(clauses) : generator.randomKSat(clauses);
+		File file = new File(fileName(variables, clauses));
+		generator.write(file, problem);
+		System.out.println("Wrote " + file.getName());
+	}
+}
@@ -12,9 +12,14 @@ public class Main
     	
     	if (args.length != 0) {
 			String name = args[0];
-			String[] fileName = name.split("-c");
-			int variables = Integer.parseInt(fileName[0].substring(1));
-			int clauses = Integer.parseInt(fileName[1].substring(0, fileName[1].length() - 4));
+			int variables = 0;
+			int clauses = 0;
+			// CNF files are named v{variables}-c{clauses}.cnf; WCNF sizes are read from the file itself
+			if (!name.endsWith(".wcnf")) {
+				String[] fileName = name.split("-c");
+				variables = Integer.parseInt(fileName[0].substring(1));
+				clauses = Integer.parseInt(fileName[1].substring(0, fileName[1].length() - 4));
+			}
 			int iterations = Integer.parseInt(args[1]);
 			int particles = Integer.parseInt(args[2]);
 			String topology = args[3];
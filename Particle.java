@@ -18,10 +18,13 @@ public class Particle {
 	// vector containing probabilities that will evolve as velocity is updated
 	private List<Double> probVector;
 
-	// fitness percentage for this particle is the
-	// the number of clauses satisfied by the assignment to the boolean variables
-	// according to probabilities in probVector
-	private double fitness;
+	// fitness for this particle is the total weight of the soft clauses satisfied
+	// by the assignment to the boolean variables according to probabilities in
+	// probVector (for an unweighted CNF problem every clause is soft with weight 1)
+	private long fitness;
+
+	// whether the current assignment satisfies every hard clause
+	private boolean feasible;
 
 	// the position at which the best solution was found for this particle
 	private List<Double> pbestVector;
@@ -29,9 +32,16 @@ public class Particle {
 	// an assignment to the boolean variables according to the probabilities
 	private List<Boolean> assignments;
 
-	// the personal best value found by the particle over a number of iterations
+	// the personal best value found by the particle over a number of iterations,
+	// as a percentage of the total soft clause weight
 	private double pbestfitness;
 
+	// exact soft clause weight satisfied by the personal best
+	private long pbestWeight;
+
+	// whether the personal best satisfies every hard clause
+	private boolean pbestFeasible;
+
 	// personal best acceleration coefficient
 	private double phi1 = 2.05;
 
@@ -46,9 +56,21 @@ public class Particle {
 
 	private Random rand = new Random();
 
-	// list of all literals in the MAXSAT problem is saved for efficiency so that
-	// file doesn't have to be read numerous times
-	private List<String> literals;
+	// all literals in the MAXSAT problem, with 0 marking the end of each clause,
+	// are saved for efficiency so that the file doesn't have to be read numerous
+	// times. Hard clauses come first. The array is shared by the whole swarm and
+	// never modified.
+	private int[] literals;
+
+	// weight of each clause in the order they appear in literals; shared by the
+	// whole swarm and never modified
+	private long[] weights;
+
+	// number of hard clauses; these are the first hardClauses clauses in literals
+	private int hardClauses;
+
+	// sum of the weights of all soft clauses
+	private long totalSoftWeight;
 
 	// number of clauses in the MAXSAT problem file
 	int clauses;
@@ -66,26 +88,37 @@ public class Particle {
 	/**
 	 * Constructor for a particle.
 	 * 
-	 * @param function is the function that will be evaluated by the particle.
+	 * @param variables    is the number of boolean variables in the MAXSAT problem.
+	 * @param literals    is every literal in the problem, with 0 ending each clause
+	 *                    and hard clauses listed first.
+	 * @param weights     is the weight of each clause, in the same order.
+	 * @param hardClauses is the number of hard clauses at the front of the array.
 	 */
-	public Particle(int variables, int clauses, List<String> literalsList) {
+	public Particle(int variables, int[] literals, long[] weights, int hardClauses) {
 
 		velocity = new ArrayList<Double>();
 		probVector = new ArrayList<Double>();
 		neighbors = new ArrayList<Particle>();
 		pbestVector = new ArrayList<Double>();
-		literals = new ArrayList<String>();
 		assignments = new ArrayList<Boolean>();
 
 		min = new ArrayList<Double>();
 		max = new ArrayList<Double>();
 
-		this.clauses = clauses;
-		for (int i = 0; i < literalsList.size(); i++) {
-			this.literals.add(literalsList.get(i));
+		this.literals = literals;
+		this.weights = weights;
+		this.clauses = weights.length;
+		this.hardClauses = hardClauses;
+		totalSoftWeight = 0;
+		for (int i = 0; i < clauses; i++) {
+			if (i >= hardClauses) {
+				totalSoftWeight += weights[i];
+			}
 		}
 
 		pbestfitness = Double.MIN_VALUE;
+		pbestWeight = -1;
+		pbestFeasible = false;
 		min = new ArrayList<Double>();
 		max = new ArrayList<Double>();
 
@@ -107,7 +140,7 @@ public class Particle {
 			max.add(value);
 		}
 
-		// finds fitness percentage/percentage of clauses satisfied by probabilities in probVector
+		// finds the soft clause weight satisfied by probabilities in probVector
 		assign();
 		this.fitness = calculateFitness();
 	}
@@ -134,37 +167,89 @@ public class Particle {
 
 	
 	/**
-	 * Method that calculates the fitness percentage (percentage of clauses
-	 * satisfied in MAXSAT problem) based on this current probability vector.
+	 * Method that calculates the fitness (total weight of soft clauses satisfied
+	 * in MAXSAT problem) based on this current assignment, and records in feasible
+	 * whether every hard clause is satisfied. Hard clauses are checked first. Once
+	 * one is violated, the scan stops as soon as the assignment can no longer beat
+	 * the personal best, so the value returned is then only a lower bound.
 	 * 
-	 * @return the fitness percentage, which is the percentage of clauses satisfied
-	 *         in the MAXSAT problem with the current probability vector.
+	 * @return the exact sum of the weights of the soft clauses satisfied, or a
+	 *         lower bound on it if the scan stopped early.
 	 */
-	private double calculateFitness() {
+	private long calculateFitness() {
 
-		int numSatisfied = 0; // number of clauses satisfied; updated as each line and clause is evaluated.
+		long satisfiedWeight = 0; // weight of soft clauses satisfied; updated as each clause is evaluated.
+		long remainingWeight = totalSoftWeight; // weight of soft clauses not yet evaluated.
+		int clause = 0; // index of the clause currently being evaluated.
 		int literal; // the literal within the clause.
 		boolean satisfied = false; // whether or not a clause is satisfied.
-
-		for (int i = 0; i < literals.size(); i++) {
-			if (!literals.get(i).equals("0")) {
-				literal = Integer.parseInt(literals.get(i));
-				if (literal < 0 && !assignments.get(Math.abs(literal) - 1)) {
-					satisfied = true;
-				} else if (literal > 0 && assignments.get(Math.abs(literal) - 1)) {
-					satisfied = true;
+		feasible = true;
+
+		for (int i = 0; i < literals.length; i++) {
+			literal = literals[i];
+			if (literal != 0) {
+				if (!satisfied) {
+					if (literal < 0 && !assignments.get(-literal - 1)) {
+						satisfied = true;
+					} else if (literal > 0 && assignments.get(literal - 1)) {
+						satisfied = true;
+					}
 				}
+				continue;
 			}
 
-			if (literals.get(i).equals("0")) {
+			// end of a clause
+			if (clause < hardClauses) {
+				if (!satisfied) {
+					feasible = false;
+				}
+			} else {
+				remainingWeight -= weights[clause];
 				if (satisfied) {
-					numSatisfied += 1;
-					satisfied = false;
+					satisfiedWeight += weights[clause];
 				}
 			}
+			satisfied = false;
+			clause++;
+
+			// an infeasible assignment never beats a feasible personal best, and only
+			// beats an infeasible one if enough soft weight is left to overtake it
+			if (!feasible && (pbestFeasible || satisfiedWeight + remainingWeight <= pbestWeight)) {
+				return satisfiedWeight;
+			}
 		}
-		float percentageDecimal = (float) numSatisfied / clauses; // makes number of clauses satisfied into a percentage																
-		return percentageDecimal * 100;
+		return satisfiedWeight;
+	}
+
+	
+	/**
+	 * Converts a satisfied soft clause weight into the percentage of the total
+	 * soft clause weight. For an unweighted CNF problem this is the percentage of
+	 * clauses satisfied.
+	 * 
+	 * @param weight is the satisfied soft clause weight.
+	 * @return the weight as a percentage of the total soft clause weight.
+	 */
+	private double toPercentage(long weight) {
+		if (totalSoftWeight == 0) {
+			return 100;
+		}
+		return (double) weight / totalSoftWeight * 100;
+	}
+
+	
+	/**
+	 * Compares two solutions. Any solution that satisfies every hard clause beats
+	 * one that does not; otherwise the one with the larger satisfied soft clause
+	 * weight wins.
+	 * 
+	 * @return whether the first solution is strictly better than the second.
+	 */
+	private static boolean isBetter(boolean feasible, long weight, boolean otherFeasible, long otherWeight) {
+		if (feasible != otherFeasible) {
+			return feasible;
+		}
+		return weight > otherWeight;
 	}
 
 	
@@ -215,14 +300,16 @@ public class Particle {
 		}
 
 		
-		// find the fitness percentage/ percentage of clauses satisfied by this particle
-		// given the new probVector
+		// find the soft clause weight satisfied by this particle given the new
+		// probVector
 		assign();
-		double curValue = calculateFitness();
+		long curValue = calculateFitness();
 
 		// updates personal best
-		if (curValue > pbestfitness) {
-			pbestfitness = curValue;
+		if (isBetter(feasible, curValue, pbestFeasible, pbestWeight)) {
+			pbestWeight = curValue;
+			pbestFeasible = feasible;
+			pbestfitness = toPercentage(curValue);
 			for (int i = 0; i < probVector.size(); i++) {
 				pbestVector.set(i, pbestVector.get(i));
 			}
@@ -301,17 +388,6 @@ public class Particle {
 	}
 
 	
-	/**
-	 * Method that returns the best solution found within the particle's
-	 * neighborhood.
-	 * 
-	 * @return the neighborhood best value.
-	 */
-	public double findNBestValue() {
-		return findNBest().getPBestFitness();
-	}
-
-	
 	/**
 	 * Helper method that iterates through the list of neighbors to find the
 	 * neighbor with the best personal best solution.
@@ -320,18 +396,28 @@ public class Particle {
 	 *         best solution within the neighborhood).
 	 */
 	public Particle findNBest() {
-		double nBest = Double.MIN_VALUE;
 		Particle nBestParticle = neighbors.get(0);
-		for (int i = 0; i < neighbors.size(); i++) {
-			if (neighbors.get(i).getPBestFitness() > nBest) {
+		for (int i = 1; i < neighbors.size(); i++) {
+			if (neighbors.get(i).pbestBeats(nBestParticle)) {
 				nBestParticle = neighbors.get(i);
-				nBest = neighbors.get(i).getPBestFitness();
 			}
 		}
 		return nBestParticle;
 	}
 
 	
+	/**
+	 * Checks whether this particle's personal best is strictly better than another
+	 * particle's personal best.
+	 * 
+	 * @param other is the particle being compared against.
+	 * @return whether this particle has the better personal best.
+	 */
+	public boolean pbestBeats(Particle other) {
+		return isBetter(pbestFeasible, pbestWeight, other.pbestFeasible, other.pbestWeight);
+	}
+
+	
 	/**
 	 * Getter method for the particle's personal best.
 	 * 
@@ -342,6 +428,38 @@ public class Particle {
 	}
 
 	
+	/**
+	 * Getter method for the exact soft clause weight satisfied by the particle's
+	 * personal best.
+	 * 
+	 * @return the satisfied soft clause weight of the personal best solution.
+	 */
+	public long getPBestWeight() {
+		return pbestWeight;
+	}
+
+	
+	/**
+	 * Getter method for whether the particle's personal best satisfies every hard
+	 * clause.
+	 * 
+	 * @return whether the personal best solution is feasible.
+	 */
+	public boolean isPBestFeasible() {
+		return pbestFeasible;
+	}
+
+	
+	/**
+	 * Getter method for the total weight of all soft clauses.
+	 * 
+	 * @return the sum of the soft clause weights.
+	 */
+	public long getTotalSoftWeight() {
+		return totalSoftWeight;
+	}
+
+	
 	public List<Double> getProbVector() {
 		return probVector;
 	}
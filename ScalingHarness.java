@@ -0,0 +1,320 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+
+/**
+ * Scaling harness that runs the real solver end to end across a grid of problem
+ * sizes, particle counts, topologies and thread counts. Problems are generated
+ * with InstanceGenerator from a fixed seed. For each point in the grid, the
+ * given number of threads each run a full Swarm at the same time. Every point
+ * gets one untimed warm-up run and is then timed repeats times. The harness
+ * reports the median, min and max of the wall time, iterations per second and
+ * particle evaluations per second, along with peak heap use, time spent in
+ * garbage collection and the quality of the solutions found. One CSV row is
+ * written per grid point, in a fixed order, after comment lines describing the
+ * JVM and machine, so reports from two versions can be diffed.
+ *
+ * Usage: java ScalingHarness [key=value ...], where the keys are
+ * out (report file), variables, particles, topologies and threads (comma
+ * separated lists), ratio (clauses per variable), k, iterations, repeats, seed
+ * and planted (true or false).
+ *
+ * @authors Souleman Toure, Diyaa Yaqub, and Jigyasa Subedi
+ */
+public class ScalingHarness {
+
+	// columns of the report, in the order they are written
+	private static final String HEADER = "k,variables,clauses,planted,particles,topology,threads,iterations,repeats,"
+			+ "wall_ms_median,wall_ms_min,wall_ms_max,"
+			+ "iterations_per_sec_median,iterations_per_sec_min,iterations_per_sec_max,"
+			+ "evaluations_per_sec_median,evaluations_per_sec_min,evaluations_per_sec_max,"
+			+ "sampled_peak_heap_used_bytes,gc_time_ms,gc_count,"
+			+ "best_percentage_median,best_percentage_min,best_percentage_max";
+
+	// how often, in milliseconds, the heap sampler reads the heap in use
+	private static final long SAMPLE_INTERVAL_MS = 1;
+
+	public static void main(String[] args) throws Exception {
+
+		// default grid; any of these can be replaced from the command line
+		Map<String, String> options = new LinkedHashMap<String, String>();
+		options.put("out", "scaling-report.csv");
+		options.put("variables", "50,100,200");
+		options.put("ratio", "4.26");
+		options.put("k", "3");
+		options.put("particles", "16,30,49");
+		options.put("topologies", "gl,ri,vn,ra");
+		options.put("threads", "1,2,4");
+		options.put("iterations", "200");
+		options.put("repeats", "5");
+		options.put("seed", "1");
+		options.put("planted", "false");
+
+		for (int i = 0; i < args.length; i++) {
+			String[] pair = args[i].split("=", 2);
+			if (pair.length != 2 || !options.containsKey(pair[0])) {
+				System.out.println("Unknown option: " + args[i]);
+				System.out.println("Options: " + options.keySet());
+				return;
+			}
+			options.put(pair[0], pair[1]);
+		}
+
+		int[] variablesGrid = parseInts(options.get("variables"));
+		int[] particlesGrid = parseInts(options.get("particles"));
+		int[] threadsGrid = parseInts(options.get("threads"));
+		String[] topologies = options.get("topologies").split(",");
+		double ratio = Double.parseDouble(options.get("ratio"));
+		int k = Integer.parseInt(options.get("k"));
+		int iterations = Integer.parseInt(options.get("iterations"));
+		int repeats = Integer.parseInt(options.get("repeats"));
+		long seed = Long.parseLong(options.get("seed"));
+		boolean planted = Boolean.parseBoolean(options.get("planted"));
+		if (repeats < 1) {
+			throw new IllegalArgumentException("repeats must be at least 1, got " + repeats);
+		}
+
+		File directory = new File(System.getProperty("java.io.tmpdir"), "scaling-instances-" + seed);
+		directory.mkdirs();
+
+		PrintWriter report = new PrintWriter(new FileWriter(options.get("out")));
+		try {
+			// describes the machine and JVM; reports are only comparable when these match
+			Runtime runtime = Runtime.getRuntime();
+			report.println("# java_version=" + System.getProperty("java.version"));
+			report.println("# java_vm=" + System.getProperty("java.vm.name") + " " + System.getProperty("java.vm.version"));
+			report.println("# os=" + System.getProperty("os.name") + " " + System.getProperty("os.arch"));
+			report.println("# available_processors=" + runtime.availableProcessors());
+			report.println("# max_heap_bytes=" + runtime.maxMemory());
+			// the report file name is left out so reports written to different files still diff cleanly
+			Map<String, String> grid = new LinkedHashMap<String, String>(options);
+			grid.remove("out");
+			report.println("# options=" + grid);
+			report.println(HEADER);
+
+			for (int v = 0; v < variablesGrid.length; v++) {
+				int variables = variablesGrid[v];
+				int clauses = (int) Math.round(variables * ratio);
+				File instance = writeInstance(directory, variables, clauses, k, seed, planted);
+
+				for (int p = 0; p < particlesGrid.length; p++) {
+					for (int t = 0; t < topologies.length; t++) {
+						// the von Neumann grid is only defined for these swarm sizes
+						int particles = particlesGrid[p];
+						if (topologies[t].equals("vn") && particles != 16 && particles != 30 && particles != 49) {
+							continue;
+						}
+						for (int th = 0; th < threadsGrid.length; th++) {
+							String row = measure(instance, k, variables, clauses, planted, particles, topologies[t],
+									threadsGrid[th], iterations, repeats);
+							report.println(row);
+							report.flush();
+						}
+					}
+				}
+			}
+		} finally {
+			report.close();
+		}
+		System.out.println("Wrote " + options.get("out"));
+	}
+
+
+	/**
+	 * Runs one point of the grid and formats it as a row of the report. The
+	 * configuration is run once untimed to warm up, then timed repeats times.
+	 *
+	 * @return the CSV row for this grid point.
+	 */
+	private static String measure(File instance, int k, int variables, int clauses, boolean planted, int particles,
+			String topology, int threads, int iterations, int repeats) throws Exception {
+
+		runSwarms(instance, variables, clauses, iterations, particles, topology, threads);
+
+		double[] wallMs = new double[repeats];
+		double[] iterationsPerSec = new double[repeats];
+		double[] evaluationsPerSec = new double[repeats];
+		double[] bestPercentages = new double[repeats * threads];
+		long peakHeap = 0;
+		long gcTime = 0;
+		long gcCount = 0;
+
+		// each particle is evaluated once when created and once per iteration
+		long totalIterations = (long) threads * iterations;
+		long totalEvaluations = (long) threads * particles * (iterations + 1);
+
+		for (int r = 0; r < repeats; r++) {
+			// starts from a clean heap so heap use and GC time belong to this run
+			System.gc();
+			long gcTimeBefore = gcTime();
+			long gcCountBefore = gcCount();
+			HeapSampler sampler = new HeapSampler();
+			sampler.start();
+
+			long start = System.nanoTime();
+			double[] best = runSwarms(instance, variables, clauses, iterations, particles, topology, threads);
+			long elapsed = System.nanoTime() - start;
+
+			peakHeap = Math.max(peakHeap, sampler.finish());
+			gcTime += gcTime() - gcTimeBefore;
+			gcCount += gcCount() - gcCountBefore;
+
+			double seconds = elapsed / 1e9;
+			wallMs[r] = elapsed / 1e6;
+			iterationsPerSec[r] = totalIterations / seconds;
+			evaluationsPerSec[r] = totalEvaluations / seconds;
+			System.arraycopy(best, 0, bestPercentages, r * threads, threads);
+		}
+
+		return String.format(Locale.ROOT, "%d,%d,%d,%b,%d,%s,%d,%d,%d,%s,%s,%s,%d,%d,%d,%s", k, variables, clauses,
+				planted, particles, topology, threads, iterations, repeats, summary(wallMs, 1),
+				summary(iterationsPerSec, 1), summary(evaluationsPerSec, 1), peakHeap, gcTime, gcCount,
+				summary(bestPercentages, 3));
+	}
+
+
+	/**
+	 * Runs one full Swarm on each of the given number of threads at the same time
+	 * and waits for all of them to finish. The swarms don't print their results.
+	 *
+	 * @return the best percentage found by each swarm.
+	 */
+	private static double[] runSwarms(final File instance, final int variables, final int clauses,
+			final int iterations, final int particles, final String topology, int threads) throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<Double>> runs = new ArrayList<Future<Double>>();
+			for (int i = 0; i < threads; i++) {
+				runs.add(pool.submit(new Callable<Double>() {
+					public Double call() {
+						Swarm swarm = new Swarm(instance.getPath(), variables, clauses, iterations, particles, topology,
+								false);
+						return swarm.getBestPercentage();
+					}
+				}));
+			}
+			double[] best = new double[runs.size()];
+			for (int i = 0; i < runs.size(); i++) {
+				best[i] = runs.get(i).get();
+			}
+			return best;
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+
+	/**
+	 * Generates a problem with InstanceGenerator and writes it to the directory,
+	 * named the way Main expects.
+	 *
+	 * @return the file the problem was written to.
+	 */
+	private static File writeInstance(File directory, int variables, int clauses, int k, long seed, boolean planted)
+			throws IOException {
+		InstanceGenerator generator = new InstanceGenerator(variables, k, seed);
+		List<int[]> problem = planted ? generator.plantedKSat(clauses) : generator.randomKSat(clauses);
+		File file = new File(directory, InstanceGenerator.fileName(variables, clauses));
+		generator.write(file, problem);
+		return file;
+	}
+
+
+	/**
+	 * Background thread that reads the total heap in use every
+	 * SAMPLE_INTERVAL_MS and keeps the largest value seen. Unlike adding up the
+	 * peak of each memory pool, this does not depend on how the collector splits
+	 * the heap. Spikes shorter than the interval can be missed.
+	 */
+	private static class HeapSampler extends Thread {
+
+		private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+		private volatile boolean running = true;
+
+		private volatile long peak;
+
+		HeapSampler() {
+			setDaemon(true);
+			peak = memory.getHeapMemoryUsage().getUsed();
+		}
+
+		public void run() {
+			while (running) {
+				peak = Math.max(peak, memory.getHeapMemoryUsage().getUsed());
+				try {
+					Thread.sleep(SAMPLE_INTERVAL_MS);
+				} catch (InterruptedException e) {
+					return;
+				}
+			}
+		}
+
+		/**
+		 * Stops the sampler and takes one last sample.
+		 *
+		 * @return the largest heap use seen, in bytes.
+		 */
+		long finish() throws InterruptedException {
+			running = false;
+			join();
+			return Math.max(peak, memory.getHeapMemoryUsage().getUsed());
+		}
+	}
+
+
+	// formats the median, min and max of the values as three CSV fields
+	private static String summary(double[] values, int decimals) {
+		double[] sorted = values.clone();
+		Arrays.sort(sorted);
+		int middle = sorted.length / 2;
+		double median = sorted.length % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2;
+		String field = "%." + decimals + "f";
+		return String.format(Locale.ROOT, field + "," + field + "," + field, median, sorted[0], sorted[sorted.length - 1]);
+	}
+
+
+	// total time in milliseconds spent in garbage collection so far
+	private static long gcTime() {
+		long total = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			total += Math.max(0, gc.getCollectionTime());
+		}
+		return total;
+	}
+
+
+	// total number of garbage collections so far
+	private static long gcCount() {
+		long total = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			total += Math.max(0, gc.getCollectionCount());
+		}
+		return total;
+	}
+
+
+	// parses a comma separated list of ints
+	private static int[] parseInts(String list) {
+		String[] parts = list.split(",");
+		int[] values = new int[parts.length];
+		for (int i = 0; i < parts.length; i++) {
+			values[i] = Integer.parseInt(parts[i].trim());
+		}
+		return values;
+	}
+}
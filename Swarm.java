@@ -1,6 +1,5 @@
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Collections;
 import java.util.Random;
 import java.io.File;
 import java.util.Scanner;
@@ -18,8 +17,24 @@ public class Swarm {
     //list containing all the particles in the swarm
     private List<Particle> allParticles; 
     
-    //list of all the literals in the MAXSAT problem. 
-    private List<String> literals; 
+    //all the literals in the MAXSAT problem, with 0 ending each clause and hard clauses first. 
+    //parsed once here and shared by every particle. 
+    private int[] literals; 
+    
+    //weight of each clause, in the same order as the clauses in literals. 
+    private long[] weights; 
+    
+    //number of hard clauses at the front of literals. 0 for an unweighted CNF problem. 
+    private int hardClauses; 
+    
+    //largest variable index seen in the MAXSAT problem file. 
+    private int maxVariable; 
+    
+    //whether the MAXSAT problem file is a weighted (WCNF) problem. 
+    private boolean weighted; 
+    
+    //the best particle found in the last iteration. 
+    private Particle best; 
     
     /**
      * Constructor for the swarm. 
@@ -27,19 +42,32 @@ public class Swarm {
      * Lastly, it calls on the update method for each particle to update its velocity and position for 10000 iterations. 
      * For each 1000 iterations, the best solution found in the swarm is added to a List, which is then outputted (by printing it) once the iterations are finished. 
      * 
+     * @param filename is the CNF or WCNF file containing the MAXSAT problem. 
+     * @param variables is the number of variables; the file is used if it mentions more. 
+     * @param clauses is the number of clauses; the count read from the file is used instead. 
+     * @param iterations is the number of iterations to run. 
      * @param numParticles the total number of particles in the swarm. 
-     * @param function is the function that this swarm and its particles will solve. 
      * @param topology is the neighborhood topology. 
      */
     public Swarm(String filename, int variables, int clauses, int iterations, int numParticles, String topology) {
+        this(filename, variables, clauses, iterations, numParticles, topology, true); 
+    }
+    
+    /**
+     * Constructor for the swarm that can run without printing the result, for callers such as ScalingHarness 
+     * that read it with getBestPercentage instead. 
+     * 
+     * @param print is whether the best solution is printed once the iterations are finished. 
+     */
+    public Swarm(String filename, int variables, int clauses, int iterations, int numParticles, String topology, boolean print) {
         allParticles = new ArrayList<Particle>(); 
         
         //initialises particles and adds them to list of all particles (that represents the swarm). 
-        literals = new ArrayList<String>(); 
         storeLiterals(filename); 
+        variables = Math.max(variables, maxVariable); 
                 
         for (int i = 0; i < numParticles; i ++) {
-            Particle particle = new Particle(variables, clauses, literals); 
+            Particle particle = new Particle(variables, literals, weights, hardClauses); 
             allParticles.add(particle);
         }
         
@@ -57,40 +85,62 @@ public class Swarm {
                 randomN(); 
             }
     
-    //the list contains the best values found by each neighborhood.
-    List<Double> NBestValues = new ArrayList<Double>(); 
-    
-    List<Double>NBestValuesIter = new ArrayList<Double>(); 
+    //the best particle found from all the neighborhood bests in the current iteration.
+    Particle iterBest = null; 
     
     //the list contains the best solution from the best values found by each neighborhood
     List<Double> bestIterations = new ArrayList<Double>(); 
 
 		for (int iter = 1; iter <= iterations; iter++) {
-			NBestValues.clear();
+			iterBest = null;
 
 			for (int p = 0; p < allParticles.size(); p++) {
 				Particle particle = allParticles.get(p);
 				particle.update();
 
-				NBestValues.add(particle.findNBestValue()); // adds the best value found from each particles
-															// neighborhood to a list.
+				// keeps the best of the neighborhood bests; hard clauses are considered
+				// before soft clause weight so an infeasible solution never wins.
+				Particle nbest = particle.findNBest();
+				if (iterBest == null || nbest.pbestBeats(iterBest)) {
+					iterBest = nbest;
+				}
 				if (p == allParticles.size() - 1) {
-					// finds the max value from all the neighborhood bests and adds it to a list
-					// that maintains the solution found at this iteration
-					bestIterations.add(Collections.max(NBestValues));
+					// adds the best value found at this iteration to a list
+					// that maintains the solution found at each iteration
+					bestIterations.add(iterBest.getPBestFitness());
 				}
 			}
 		}
 
-		// outputs the best solution found to functions at every 10 iterations
-		System.out.println("After " + bestIterations.size() + " iterations,  "
-				+ bestIterations.get(bestIterations.size() - 1) + " percentage of clauses satisfied.");
+		// outputs the best solution found in the last iteration
+		best = iterBest;
+		if (!print) {
+			return;
+		}
+		if (weighted) {
+			System.out.println("After " + bestIterations.size() + " iterations,  soft clause weight "
+					+ iterBest.getPBestWeight() + " of " + iterBest.getTotalSoftWeight() + " satisfied, hard clauses "
+					+ (iterBest.isPBestFeasible() ? "satisfied." : "violated."));
+		} else {
+			System.out.println("After " + bestIterations.size() + " iterations,  "
+					+ bestIterations.get(bestIterations.size() - 1) + " percentage of clauses satisfied.");
+		}
 
 	}
 
 
 
 
+/**
+     * Getter method for the best solution found in the last iteration. 
+     * 
+     * @return the best solution as a percentage of the total soft clause weight (of the clauses, for a CNF problem). 
+     */
+    public double getBestPercentage() {
+        return best.getPBestFitness(); 
+    }
+    
+    
 /**
      * Creates a neighborhood for each particle based on ring topology. Each particle has 2 neighbors. 
      * The neighborhoods list is being populated with the particle, and its two neighbors. The method creates sublists that hold each neighborhood. 
@@ -247,10 +297,14 @@ public class Swarm {
     
     
     /**
- * Helper method that reads in the file and creates a list of all the literals in the MAXSAT problem. 
+ * Helper method that reads in the file and creates an array of all the literals in the MAXSAT problem, 
+ * along with the weight of each clause. Both plain CNF files and weighted partial MAXSAT (WCNF) files are read. 
+ * In a CNF file every clause is soft with weight 1. In a WCNF file each clause starts with its weight, 
+ * or with "h" for a hard clause; with an older "p wcnf" header that gives a top weight, clauses with a weight 
+ * of at least top are hard. In both formats a clause may continue onto the next line until its 0. 
+ * Hard clauses are stored before soft clauses so that particles check them first. 
  * 
  * @param filename is the name of the file containing MAXSAT problem. 
- * @return all the literals, and 0s (indicating end of a clause), stored in a list in order it appears in MAXSAT problem. 
  */
 private void storeLiterals(String filename) {
     
@@ -258,22 +312,68 @@ private void storeLiterals(String filename) {
         File file = new File(filename);
         String line;
         
+        List<Integer> hardLiterals = new ArrayList<Integer>(); //literals of the hard clauses, kept apart so they can go first. 
+        List<Integer> softLiterals = new ArrayList<Integer>(); 
+        List<Long> softWeights = new ArrayList<Long>(); 
+        long top = Long.MAX_VALUE; //weight at or above which a clause is hard. 
+        boolean inClause = false; //whether the clause being read hasn't reached its 0 yet. 
+        boolean hard = false; //whether the clause being read is hard. 
+        long weight = 1; //weight of the clause being read. 
+        weighted = filename.endsWith(".wcnf"); 
+        hardClauses = 0; 
+        maxVariable = 0; 
+        
         try {
             Scanner Reader = new Scanner(file);
             
             while (Reader.hasNextLine()) { 
-              line = Reader.nextLine(); 
-              if (line.startsWith("p")) { //skips the first line of the MAXSAT problem file. 
-                  line = Reader.nextLine(); 
+                line = Reader.nextLine().trim(); 
+                if (line.equals("") || line.startsWith("c")) { //skips blank lines and comments. 
+                    continue; 
                 }
                 
-                line = line.trim();
-                lineArr = line.split(" "); 
+                lineArr = line.split("\\s+"); 
+                if (line.startsWith("p")) { //reads the header: p cnf variables clauses, or p wcnf variables clauses [top]. 
+                    weighted = lineArr[1].equals("wcnf"); 
+                    maxVariable = Math.max(maxVariable, Integer.parseInt(lineArr[2])); 
+                    if (weighted && lineArr.length > 4) {
+                        top = Long.parseLong(lineArr[4]); 
+                    }
+                    continue; 
+                }
                 
-                //adds the relevant elements into noSpaceLineArr - it should only contain the literals in the clause.  
                 for (int i = 0; i < lineArr.length; i ++) { 
-                    if (!lineArr[i].equals("")) {
-                        literals.add(lineArr[i]); 
+                    //the first element of a weighted clause is its weight or "h"; the rest are literals ending with 0. 
+                    if (!inClause) {
+                        inClause = true; 
+                        hard = false; 
+                        weight = 1; 
+                        if (weighted) {
+                            if (lineArr[i].equals("h")) {
+                                hard = true; 
+                            } else {
+                                weight = Long.parseLong(lineArr[i]); 
+                                hard = weight >= top; 
+                            }
+                            continue; 
+                        }
+                    }
+                    
+                    int literal = Integer.parseInt(lineArr[i]); 
+                    if (hard) {
+                        hardLiterals.add(literal); 
+                    } else {
+                        softLiterals.add(literal); 
+                    }
+                    
+                    if (literal != 0) {
+                        maxVariable = Math.max(maxVariable, Math.abs(literal)); 
+                    } else if (hard) { //end of the clause. 
+                        hardClauses++; 
+                        inClause = false; 
+                    } else {
+                        softWeights.add(weight); 
+                        inClause = false; 
                     }
                 }
             }
@@ -281,5 +381,22 @@ private void storeLiterals(String filename) {
         } catch (FileNotFoundException e) {
           System.out.println("File not found."); 
         }
+        
+        if (inClause) {
+            throw new IllegalArgumentException("Last clause in " + filename + " has no closing 0."); 
+        }
+        
+        //hard clauses go first; their weights are never added to the fitness. 
+        literals = new int[hardLiterals.size() + softLiterals.size()]; 
+        for (int i = 0; i < hardLiterals.size(); i ++) {
+            literals[i] = hardLiterals.get(i); 
+        }
+        for (int i = 0; i < softLiterals.size(); i ++) {
+            literals[hardLiterals.size() + i] = softLiterals.get(i); 
+        }
+        weights = new long[hardClauses + softWeights.size()]; 
+        for (int i = 0; i < softWeights.size(); i ++) {
+            weights[hardClauses + i] = softWeights.get(i); 
+        }
 }
 }